@@ -8,15 +8,24 @@ import java.io.*;
 import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class ClientGUI {
+    // Workers de leitura da fila de transferências (configurável com -Dtransfer.workers=N).
+    // Cada worker pode manter um arquivo inteiro em memória aguardando o envio.
+    private static final int TRANSFER_WORKERS = Math.max(1, Integer.getInteger("transfer.workers", 1));
+
     private JFrame frame;
     private JTabbedPane tabbedPane;
     private LogPanel logPanel;
+    private TransferPanel transferPanel;
+    private TransferQueueManager transferManager;
     private JTextArea serverInfoArea;
     private JTextField messageField;
     private JTextField fileSelectedField;
@@ -26,10 +35,9 @@ public class ClientGUI {
     private JButton sendButton;
     
     private Socket socket;
-    private ObjectOutputStream out;
     private ObjectInputStream in;
-    private volatile boolean isConnected = false;
-    private Path selectedFilePath;
+    private final AtomicBoolean isConnected = new AtomicBoolean(false);
+    private List<Path> selectedFilePaths = new ArrayList<>();
     private Set<String> allowedExtensions = new HashSet<>();
 
     public ClientGUI() {
@@ -39,7 +47,12 @@ public class ClientGUI {
     private void initializeGUI() {
         frame = new JFrame("Cliente de Transferência");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setPreferredSize(new Dimension(650, 500));
+        frame.setPreferredSize(new Dimension(650, 600));
+
+        // Log e fila de transferências (os workers registram no log)
+        logPanel = new LogPanel();
+        transferManager = new TransferQueueManager(TRANSFER_WORKERS, logPanel, this::handleTransferError);
+        transferPanel = new TransferPanel(transferManager);
 
         // Aba Principal
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
@@ -62,12 +75,14 @@ public class ClientGUI {
 
         mainPanel.add(connectionPanel, BorderLayout.NORTH);
 
-        // Painel Central - Info Servidor / Chat
+        // Painel Central - Info Servidor / Chat e Fila de Transferências
         serverInfoArea = new JTextArea("Status: Desconectado. Conecte-se para ver as configurações do Servidor.");
         serverInfoArea.setEditable(false);
         serverInfoArea.setLineWrap(true);
         JScrollPane serverInfoScroll = new JScrollPane(serverInfoArea);
-        mainPanel.add(serverInfoScroll, BorderLayout.CENTER);
+        JSplitPane centerSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, serverInfoScroll, transferPanel);
+        centerSplit.setResizeWeight(0.3);
+        mainPanel.add(centerSplit, BorderLayout.CENTER);
         
         // Painel Sul - Envio
         JPanel sendPanel = new JPanel(new BorderLayout(5, 5));
@@ -99,7 +114,6 @@ public class ClientGUI {
         tabbedPane.addTab("Principal", mainPanel);
 
         // Aba de Log
-        logPanel = new LogPanel();
         tabbedPane.addTab("Log", logPanel);
 
         frame.add(tabbedPane);
@@ -108,14 +122,14 @@ public class ClientGUI {
 
         // Listeners
         connectButton.addActionListener(e -> connectToServer());
-        disconnectButton.addActionListener(e -> disconnectFromServer());
+        disconnectButton.addActionListener(e -> disconnectFromServer(false));
         sendButton.addActionListener(e -> sendMessageOrFile());
         selectFileButton.addActionListener(e -> selectFile());
         
         frame.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                disconnectFromServer();
+                disconnectFromServer(false);
             }
         });
     }
@@ -127,9 +141,9 @@ public class ClientGUI {
             try {
                 logPanel.log("Tentando conectar ao servidor em localhost:" + FileTransferProtocol.PORT + "...");
                 socket = new Socket("localhost", FileTransferProtocol.PORT);
-                out = new ObjectOutputStream(socket.getOutputStream());
+                transferManager.attach(socket);
                 in = new ObjectInputStream(socket.getInputStream());
-                isConnected = true;
+                isConnected.set(true);
                 
                 SwingUtilities.invokeLater(() -> {
                     connectButton.setEnabled(false);
@@ -145,7 +159,7 @@ public class ClientGUI {
             } catch (IOException e) {
                 logPanel.log("Falha ao conectar: " + e.getMessage());
                 JOptionPane.showMessageDialog(frame, "Falha ao conectar ao servidor.", "Erro de Conexão", JOptionPane.ERROR_MESSAGE);
-                isConnected = false;
+                isConnected.set(false);
                 SwingUtilities.invokeLater(() -> {
                     connectButton.setEnabled(true);
                     disconnectButton.setEnabled(false);
@@ -155,14 +169,17 @@ public class ClientGUI {
         }).start();
     }
 
-    private void disconnectFromServer() {
-        if (!isConnected) return;
-        isConnected = false;
+    // keepPending: a conexão caiu, então a fila pendente aguarda a próxima conexão em vez de ser cancelada
+    private void disconnectFromServer(boolean keepPending) {
+        if (!isConnected.compareAndSet(true, false)) return;
         try {
-            if (out != null) out.writeObject(FileTransferProtocol.MSG_SERVER_SHUTDOWN);
-            if (out != null) out.close();
-            if (in != null) in.close();
-            if (socket != null) socket.close();
+            // Avisa o servidor e fecha o stream de saída
+            try {
+                transferManager.detach(FileTransferProtocol.MSG_SERVER_SHUTDOWN, keepPending);
+            } finally {
+                if (in != null) in.close();
+                if (socket != null) socket.close();
+            }
             logPanel.log("Desconectado do servidor.");
         } catch (IOException e) {
             logPanel.log("Erro ao fechar a conexão: " + e.getMessage());
@@ -172,7 +189,7 @@ public class ClientGUI {
                 disconnectButton.setEnabled(false);
                 sendButton.setEnabled(false);
                 fileSelectedField.setText("Nenhum arquivo selecionado.");
-                selectedFilePath = null;
+                selectedFilePaths.clear();
                 allowedExtensions.clear();
                 updateServerInfo("Desconectado.");
             });
@@ -182,7 +199,7 @@ public class ClientGUI {
     private void listenForServerMessages() {
         new Thread(() -> {
             try {
-                while (isConnected) {
+                while (isConnected.get()) {
                     Object receivedObject = in.readObject();
                     if (receivedObject instanceof String) {
                         String message = (String) receivedObject;
@@ -197,6 +214,7 @@ public class ClientGUI {
                         } else if (message.startsWith(FileTransferProtocol.MSG_FILE_TYPE_ERROR)) {
                             String errorExt = message.substring(FileTransferProtocol.MSG_FILE_TYPE_ERROR.length());
                             logPanel.log("Erro do Servidor: Tipo de arquivo ."+errorExt+" não permitido!");
+                            transferManager.markRejected(errorExt);
                             JOptionPane.showMessageDialog(frame, "Servidor rejeitou: Tipo de arquivo ."+errorExt+" não permitido!", "Erro de Envio", JOptionPane.WARNING_MESSAGE);
                         } else {
                             logPanel.log("Mensagem do servidor: " + message);
@@ -206,9 +224,9 @@ public class ClientGUI {
             } catch (EOFException e) {
                 logPanel.log("O servidor fechou a conexão.");
             } catch (IOException | ClassNotFoundException e) {
-                 if (isConnected) logPanel.log("Erro de comunicação: " + e.getMessage());
+                 if (isConnected.get()) logPanel.log("Erro de comunicação: " + e.getMessage());
             } finally {
-                disconnectFromServer();
+                disconnectFromServer(true);
             }
         }).start();
     }
@@ -220,13 +238,14 @@ public class ClientGUI {
     // Lógica de Interface Gráfica
 
     private void selectFile() {
-        if (!isConnected) {
+        if (!isConnected.get()) {
             JOptionPane.showMessageDialog(frame, "Conecte-se ao servidor primeiro.", "Erro", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("Selecione o Arquivo para Enviar");
+        fileChooser.setDialogTitle("Selecione os Arquivos para Enviar");
+        fileChooser.setMultiSelectionEnabled(true);
 
         // Configurar o filtro de extensões
         if (!allowedExtensions.isEmpty()) {
@@ -241,61 +260,71 @@ public class ClientGUI {
 
         int result = fileChooser.showOpenDialog(frame);
         if (result == JFileChooser.APPROVE_OPTION) {
-            selectedFilePath = fileChooser.getSelectedFile().toPath();
-            fileSelectedField.setText(selectedFilePath.getFileName().toString());
-            logPanel.log("Arquivo selecionado: " + selectedFilePath.getFileName());
+            selectedFilePaths = Arrays.stream(fileChooser.getSelectedFiles()).map(File::toPath).collect(Collectors.toCollection(ArrayList::new));
+            if (selectedFilePaths.size() == 1) {
+                fileSelectedField.setText(selectedFilePaths.get(0).getFileName().toString());
+            } else {
+                fileSelectedField.setText(selectedFilePaths.size() + " arquivos selecionados.");
+            }
+            for (Path path : selectedFilePaths) {
+                logPanel.log("Arquivo selecionado: " + path.getFileName());
+            }
         }
     }
 
     private void sendMessageOrFile() {
-        if (!isConnected) {
+        if (!isConnected.get()) {
             JOptionPane.showMessageDialog(frame, "Conecte-se ao servidor primeiro.", "Erro", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        
-        new Thread(() -> {
-            try {
-                if (selectedFilePath != null) {
-                    // Enviar Arquivo
-                    File file = selectedFilePath.toFile();
-                    String fileName = file.getName();
-                    byte[] fileData = Files.readAllBytes(selectedFilePath);
-                    
-                    // Validação final de extensão (A GUI deveria ter filtrado, mas é bom validar)
-                    String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
-                    if (!allowedExtensions.contains(extension)) {
-                         logPanel.log("ERRO LOCAL: Extensão ."+extension+" não permitida pelo servidor.");
-                         JOptionPane.showMessageDialog(frame, "O tipo de arquivo ."+extension+" não está na lista de tipos permitidos pelo Servidor: "+allowedExtensions.toString(), "Erro de Validação", JOptionPane.ERROR_MESSAGE);
-                         return;
-                    }
-                    
-                    FileTransferProtocol.TransferData data = new FileTransferProtocol.TransferData(fileName, fileData);
-                    out.writeObject(data);
-                    out.flush();
-                    logPanel.log("Arquivo '" + fileName + "' (" + fileData.length + " bytes) enviado.");
-                    
-                    // Limpar seleção
-                    selectedFilePath = null;
-                    SwingUtilities.invokeLater(() -> fileSelectedField.setText("Nenhum arquivo selecionado."));
-                    
-                } else if (!messageField.getText().trim().isEmpty()) {
-                    // Enviar Mensagem de Texto
-                    String message = messageField.getText();
-                    FileTransferProtocol.TransferData data = new FileTransferProtocol.TransferData(message);
-                    out.writeObject(data);
-                    out.flush();
-                    logPanel.log("Mensagem de texto enviada: " + message);
-                    SwingUtilities.invokeLater(() -> messageField.setText("")); // Limpar campo
-                } else {
-                    JOptionPane.showMessageDialog(frame, "Selecione um arquivo OU digite uma mensagem.", "Atenção", JOptionPane.WARNING_MESSAGE);
+
+        if (!selectedFilePaths.isEmpty()) {
+            // Enfileirar Arquivos
+            List<String> rejectedFiles = new ArrayList<>();
+            for (Path path : selectedFilePaths) {
+                String fileName = path.getFileName().toString();
+
+                // Validação final de extensão (A GUI deveria ter filtrado, mas é bom validar)
+                String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+                if (!allowedExtensions.contains(extension)) {
+                    logPanel.log("ERRO LOCAL: Extensão ."+extension+" não permitida pelo servidor.");
+                    rejectedFiles.add(fileName);
+                    continue;
+                }
+
+                try {
+                    transferManager.submitFile(path, Files.size(path));
+                    logPanel.log("Arquivo '" + fileName + "' adicionado à fila de envio.");
+                } catch (IOException e) {
+                    logPanel.log("Erro ao ler o arquivo '" + fileName + "': " + e.getMessage());
                 }
-                
-            } catch (IOException e) {
-                logPanel.log("Erro ao enviar dados: " + e.getMessage());
-                JOptionPane.showMessageDialog(frame, "Erro ao enviar dados: " + e.getMessage(), "Erro de Comunicação", JOptionPane.ERROR_MESSAGE);
-                disconnectFromServer();
             }
-        }).start();
+
+            // Limpar seleção
+            selectedFilePaths.clear();
+            fileSelectedField.setText("Nenhum arquivo selecionado.");
+
+            // Um único aviso para todos os arquivos recusados
+            if (!rejectedFiles.isEmpty()) {
+                JOptionPane.showMessageDialog(frame, "Os arquivos a seguir não estão na lista de tipos permitidos pelo Servidor "+allowedExtensions.toString()+" e não foram enviados:\n"+String.join("\n", rejectedFiles), "Erro de Validação", JOptionPane.ERROR_MESSAGE);
+            }
+
+        } else if (!messageField.getText().trim().isEmpty()) {
+            // Enfileirar Mensagem de Texto
+            transferManager.submitText(messageField.getText());
+            messageField.setText(""); // Limpar campo
+        } else {
+            JOptionPane.showMessageDialog(frame, "Selecione um arquivo OU digite uma mensagem.", "Atenção", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Chamado pelo sender (uma vez por conexão) quando a escrita no socket falha: o stream não é mais utilizável
+    private void handleTransferError(IOException e) {
+        SwingUtilities.invokeLater(() -> {
+            if (!isConnected.get()) return;
+            disconnectFromServer(true);
+            JOptionPane.showMessageDialog(frame, "Erro ao enviar dados: " + e.getMessage() + "\nOs itens pendentes serão enviados na próxima conexão.", "Erro de Comunicação", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,124 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TransferPanel.java
+ * Tabela com as transferências da fila do Cliente. O progresso é amostrado a uma taxa fixa
+ * por um javax.swing.Timer, assim os workers nunca tocam na GUI e a interface continua
+ * responsiva durante envios grandes.
+ */
+public class TransferPanel extends JPanel {
+    private static final int SAMPLE_INTERVAL_MILLIS = 250;
+    private static final String[] COLUMNS = {"Item", "Tamanho", "Status", "Progresso", "Velocidade", "ETA"};
+
+    private final TransferQueueManager manager;
+    private final TransferTableModel tableModel = new TransferTableModel();
+    private final Timer sampleTimer;
+
+    public TransferPanel(TransferQueueManager manager) {
+        this.manager = manager;
+        setLayout(new BorderLayout(5, 5));
+
+        JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+        table.getColumnModel().getColumn(3).setCellRenderer(new ProgressRenderer());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton clearButton = new JButton("Limpar Finalizados");
+        clearButton.addActionListener(e -> {
+            manager.removeFinished();
+            tableModel.refresh();
+        });
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttonPanel.add(clearButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        sampleTimer = new Timer(SAMPLE_INTERVAL_MILLIS, e -> tableModel.refresh());
+        sampleTimer.start();
+    }
+
+    // Modelo que lê o estado das transferências a cada amostragem
+    private class TransferTableModel extends AbstractTableModel {
+        private List<TransferQueueManager.TransferTask> rows = new ArrayList<>();
+
+        void refresh() {
+            List<TransferQueueManager.TransferTask> snapshot = manager.getTasks();
+            if (snapshot.equals(rows)) {
+                if (!rows.isEmpty()) fireTableRowsUpdated(0, rows.size() - 1);
+            } else {
+                rows = snapshot;
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() { return rows.size(); }
+
+        @Override
+        public int getColumnCount() { return COLUMNS.length; }
+
+        @Override
+        public String getColumnName(int column) { return COLUMNS[column]; }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            TransferQueueManager.TransferTask task = rows.get(row);
+            switch (column) {
+                case 0: return task.getName();
+                case 1: return formatBytes(task.getTotalBytes());
+                case 2: return statusText(task);
+                case 3: return task.getProgress();
+                case 4: return task.hasStartedSending() ? formatBytes((long) task.getBytesPerSecond()) + "/s" : "-";
+                case 5: return formatEta(task.getEtaSeconds());
+                default: return "";
+            }
+        }
+    }
+
+    // Renderiza a coluna de progresso como barra
+    private static class ProgressRenderer extends JProgressBar implements TableCellRenderer {
+        ProgressRenderer() {
+            super(0, 1000);
+            setStringPainted(true);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            double progress = (value instanceof Double) ? (Double) value : 0.0;
+            setValue((int) (progress * 1000));
+            setString(String.format("%.1f%%", progress * 100));
+            return this;
+        }
+    }
+
+    private static String statusText(TransferQueueManager.TransferTask task) {
+        TransferQueueManager.Status status = task.getStatus();
+        if (status == TransferQueueManager.Status.FAILED && task.getError() != null) {
+            return status + ": " + task.getError();
+        }
+        if (task.getAttempts() > 1 && !status.isFinished()) {
+            return status + " (tentativa " + task.getAttempts() + "/" + TransferQueueManager.MAX_ATTEMPTS + ")";
+        }
+        return status.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private static String formatEta(long seconds) {
+        if (seconds < 0) return "-";
+        if (seconds < 60) return seconds + "s";
+        if (seconds < 3600) return String.format("%dm%02ds", seconds / 60, seconds % 60);
+        return String.format("%dh%02dm", seconds / 3600, (seconds % 3600) / 60);
+    }
+}
@@ -0,0 +1,472 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * TransferQueueManager.java
+ * Fila de transferências do Cliente: workers leem os itens de uma fila com prioridade
+ * (mensagens de texto e arquivos menores primeiro) e um único sender os envia, também por prioridade.
+ * O ServerGUI aceita apenas uma conexão por vez, então todos os envios passam pelo mesmo
+ * ObjectOutputStream. Cada worker ocupa uma vaga de leitura antecipada: com N workers, até N
+ * arquivos podem estar carregados em memória aguardando o sender, além do que está sendo enviado.
+ */
+public class TransferQueueManager {
+    public static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long FAREWELL_TIMEOUT_MILLIS = 500;
+
+    // Texto antes de arquivo, depois o menor tamanho, depois a ordem de chegada
+    private static final Comparator<TransferTask> PRIORITY = Comparator
+            .comparing((TransferTask t) -> !t.isText())
+            .thenComparingLong(TransferTask::getTotalBytes)
+            .thenComparingLong(t -> t.sequence);
+
+    public enum Status {
+        QUEUED("Na fila"),
+        PREPARING("Lendo arquivo"),
+        SENDING("Enviando"),
+        RETRY_WAIT("Aguardando nova tentativa"),
+        WAITING_CONNECTION("Aguardando conexão"),
+        DONE("Concluído"),
+        FAILED("Falhou"),
+        CANCELLED("Cancelado");
+
+        private final String label;
+
+        Status(String label) { this.label = label; }
+
+        public boolean isFinished() { return this == DONE || this == FAILED || this == CANCELLED; }
+
+        @Override
+        public String toString() { return label; }
+    }
+
+    // Item da fila (texto ou arquivo) com o estado lido pela tabela de progresso
+    public static class TransferTask {
+        private final long sequence;
+        private final Path path;
+        private final String textMessage;
+        private final String name;
+        private final String extension;
+        private final long totalBytes;
+        private final AtomicLong sentBytes = new AtomicLong();
+        private volatile Status status = Status.QUEUED;
+        private volatile int attempts;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile String error;
+
+        private TransferTask(long sequence, Path path, String textMessage, long totalBytes) {
+            this.sequence = sequence;
+            this.path = path;
+            this.textMessage = textMessage;
+            this.name = (path != null) ? path.getFileName().toString() : "[MSG] " + textMessage;
+            int dotIndex = name.lastIndexOf('.');
+            this.extension = (path != null && dotIndex > 0) ? name.substring(dotIndex + 1).toLowerCase() : "";
+            this.totalBytes = totalBytes;
+        }
+
+        // Getters
+        public boolean isText() { return path == null; }
+        public String getName() { return name; }
+        public long getTotalBytes() { return totalBytes; }
+        public long getSentBytes() { return sentBytes.get(); }
+        public Status getStatus() { return status; }
+        public int getAttempts() { return attempts; }
+        public String getError() { return error; }
+        public boolean hasStartedSending() { return startNanos != 0; }
+
+        // Fração enviada entre 0 e 1 (o cabeçalho da serialização pode ultrapassar o tamanho do arquivo)
+        public double getProgress() {
+            if (status == Status.DONE) return 1.0;
+            if (totalBytes <= 0) return 0.0;
+            return Math.min(1.0, (double) sentBytes.get() / totalBytes);
+        }
+
+        // Taxa média desde o início do envio, em bytes por segundo
+        public double getBytesPerSecond() {
+            long start = startNanos;
+            if (start == 0) return 0.0;
+            long end = status.isFinished() && endNanos != 0 ? endNanos : System.nanoTime();
+            double seconds = (end - start) / 1_000_000_000.0;
+            return seconds > 0 ? sentBytes.get() / seconds : 0.0;
+        }
+
+        // Tempo restante estimado em segundos, ou -1 se ainda não houver dados suficientes
+        public long getEtaSeconds() {
+            if (status != Status.SENDING) return -1;
+            double rate = getBytesPerSecond();
+            if (rate <= 0) return -1;
+            long remaining = Math.max(0, totalBytes - sentBytes.get());
+            return (long) Math.ceil(remaining / rate);
+        }
+
+        private synchronized boolean transition(Status from, Status to) {
+            if (status != from) return false;
+            status = to;
+            return true;
+        }
+
+        // Volta ao estado inicial de progresso antes de uma nova tentativa de envio
+        private synchronized boolean retry(Status from, Status to, String errorMessage) {
+            if (status != from) return false;
+            status = to;
+            error = errorMessage;
+            sentBytes.set(0);
+            startNanos = 0;
+            endNanos = 0;
+            return true;
+        }
+
+        private synchronized boolean cancel() {
+            if (status.isFinished() || status == Status.SENDING) return false;
+            status = Status.CANCELLED;
+            return true;
+        }
+
+        // Finaliza apenas se ainda estiver em "from", para não sobrescrever um cancelamento
+        private synchronized boolean finish(Status from, Status finalStatus, String errorMessage) {
+            if (status != from) return false;
+            finish(finalStatus, errorMessage);
+            return true;
+        }
+
+        private synchronized void finish(Status finalStatus, String errorMessage) {
+            status = finalStatus;
+            error = errorMessage;
+            endNanos = System.nanoTime();
+        }
+    }
+
+    // Arquivo já lido, aguardando o sender
+    private static class PreparedTransfer {
+        private final TransferTask task;
+        private final FileTransferProtocol.TransferData data;
+
+        private PreparedTransfer(TransferTask task, FileTransferProtocol.TransferData data) {
+            this.task = task;
+            this.data = data;
+        }
+    }
+
+    // Conta os bytes escritos no socket e os atribui à transferência em andamento.
+    // O ObjectOutputStream grava em blocos de até 1024 bytes, então o progresso avança durante o envio.
+    private static class CountingOutputStream extends FilterOutputStream {
+        private volatile AtomicLong target;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        private void setTarget(AtomicLong target) { this.target = target; }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count(len);
+        }
+
+        private void count(int n) {
+            AtomicLong t = target;
+            if (t != null) t.addAndGet(n);
+        }
+    }
+
+    private final LogPanel logPanel;
+    private final Consumer<IOException> onConnectionError;
+    private final PriorityBlockingQueue<TransferTask> queue = new PriorityBlockingQueue<>(16, PRIORITY);
+    private final PriorityBlockingQueue<PreparedTransfer> ready =
+            new PriorityBlockingQueue<>(16, Comparator.comparing((PreparedTransfer p) -> p.task, PRIORITY));
+    private final Semaphore readAheadSlots;
+    private final List<TransferTask> tasks = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean errorReported = new AtomicBoolean();
+    // Arquivos enviados na conexão atual, na ordem de envio, para associar rejeições do servidor
+    private final ConcurrentLinkedQueue<TransferTask> sentFiles = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService retryScheduler;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Socket socket;
+    private volatile ObjectOutputStream out;
+    private volatile CountingOutputStream counter;
+
+    public TransferQueueManager(int workerCount, LogPanel logPanel, Consumer<IOException> onConnectionError) {
+        this.logPanel = logPanel;
+        this.onConnectionError = onConnectionError;
+        this.readAheadSlots = new Semaphore(workerCount);
+        ExecutorService threads = Executors.newFixedThreadPool(workerCount + 1, daemonThreads("transfer"));
+        for (int i = 0; i < workerCount; i++) {
+            threads.execute(this::workerLoop);
+        }
+        threads.execute(this::senderLoop);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("transfer-retry"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicLong count = new AtomicLong();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Associa a fila a uma nova conexão e devolve à fila o que aguardava reconexão.
+    // Deve ser chamado antes de criar o ObjectInputStream.
+    public void attach(Socket socket) throws IOException {
+        CountingOutputStream streamCounter = new CountingOutputStream(socket.getOutputStream());
+        ObjectOutputStream stream = new ObjectOutputStream(streamCounter);
+        errorReported.set(false);
+        sentFiles.clear();
+        this.counter = streamCounter;
+        this.socket = socket;
+        this.out = stream;
+        for (TransferTask task : tasks) {
+            if (task.transition(Status.WAITING_CONNECTION, Status.QUEUED)) queue.offer(task);
+        }
+    }
+
+    // Encerra a conexão: envia a mensagem de despedida e fecha o stream. Com keepPending, o que ainda
+    // não foi enviado aguarda a próxima conexão; sem ele (desconexão pelo usuário), é cancelado.
+    // Se um envio ainda estiver em andamento, fecha o socket para que o sender falhe com IOException.
+    public void detach(Object farewellMessage, boolean keepPending) throws IOException {
+        ObjectOutputStream stream = out;
+        Socket connection = socket;
+        socket = null;
+        List<TransferTask> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        List<PreparedTransfer> drained = new ArrayList<>();
+        ready.drainTo(drained);
+        readAheadSlots.release(drained.size());
+        if (keepPending) {
+            for (TransferTask task : queued) {
+                task.transition(Status.QUEUED, Status.WAITING_CONNECTION);
+            }
+            for (PreparedTransfer prepared : drained) {
+                prepared.task.transition(Status.PREPARING, Status.WAITING_CONNECTION);
+            }
+        } else {
+            for (TransferTask task : tasks) {
+                task.cancel();
+            }
+        }
+        if (stream == null) {
+            // O sender já descartou o stream após uma falha de escrita
+            if (connection != null) connection.close();
+            return;
+        }
+
+        boolean locked = false;
+        try {
+            locked = writeLock.tryLock(FAREWELL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out = null;
+        try {
+            if (locked) {
+                try {
+                    if (farewellMessage != null) {
+                        stream.writeObject(farewellMessage);
+                        stream.flush();
+                    }
+                } finally {
+                    stream.close();
+                }
+            } else {
+                connection.close();
+            }
+        } finally {
+            if (locked) writeLock.unlock();
+        }
+    }
+
+    public TransferTask submitFile(Path path, long size) {
+        return submit(new TransferTask(sequence.incrementAndGet(), path, null, size));
+    }
+
+    public TransferTask submitText(String message) {
+        long size = message.getBytes(StandardCharsets.UTF_8).length;
+        return submit(new TransferTask(sequence.incrementAndGet(), null, message, size));
+    }
+
+    private TransferTask submit(TransferTask task) {
+        tasks.add(task);
+        queue.offer(task);
+        return task;
+    }
+
+    // Marca como falha o arquivo rejeitado pelo servidor. O servidor responde na ordem de recebimento
+    // e informa apenas a extensão, então a rejeição corresponde ao envio mais antigo com essa extensão.
+    public void markRejected(String extension) {
+        for (Iterator<TransferTask> it = sentFiles.iterator(); it.hasNext(); ) {
+            TransferTask task = it.next();
+            if (task.extension.equals(extension)) {
+                it.remove();
+                String message = "Rejeitado pelo servidor (." + extension + ")";
+                if (!task.finish(Status.DONE, Status.FAILED, message)) task.finish(Status.SENDING, Status.FAILED, message);
+                return;
+            }
+        }
+    }
+
+    // Cópia da lista de transferências para exibição
+    public List<TransferTask> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+
+    // Remove do histórico as transferências já finalizadas
+    public void removeFinished() {
+        tasks.removeIf(t -> t.getStatus().isFinished());
+    }
+
+    // Worker: ocupa uma vaga de leitura antes de tirar o próximo item da fila, limitando a memória
+    private void workerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                readAheadSlots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean handedOff = false;
+            try {
+                handedOff = prepare(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!handedOff) readAheadSlots.release();
+            }
+        }
+    }
+
+    // Lê o item e o entrega ao sender; retorna false se nada ficou ocupando a vaga de leitura
+    private boolean prepare(TransferTask task) {
+        if (!task.transition(Status.QUEUED, Status.PREPARING)) return false;
+        task.attempts++;
+        try {
+            FileTransferProtocol.TransferData data = task.isText()
+                    ? new FileTransferProtocol.TransferData(task.textMessage)
+                    : new FileTransferProtocol.TransferData(task.name, Files.readAllBytes(task.path));
+            ready.offer(new PreparedTransfer(task, data));
+            return true;
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            // Erros permanentes: repetir a leitura só atrasaria a falha
+            if (task.finish(Status.PREPARING, Status.FAILED, e.toString())) {
+                logPanel.log("Falha ao ler '" + task.name + "': " + e);
+            }
+        } catch (IOException e) {
+            scheduleRetry(task, Status.PREPARING, "Erro ao ler", e);
+        } catch (Throwable t) {
+            // Ex.: OutOfMemoryError em arquivos muito grandes; o worker continua atendendo a fila
+            if (task.finish(Status.PREPARING, Status.FAILED, t.toString())) {
+                logPanel.log("Falha ao ler '" + task.name + "': " + t);
+            }
+        }
+        return false;
+    }
+
+    // Sender único: envia sempre o item pronto de maior prioridade
+    private void senderLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            PreparedTransfer prepared;
+            try {
+                prepared = ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            readAheadSlots.release();
+            try {
+                send(prepared);
+            } catch (Throwable t) {
+                prepared.task.finish(Status.FAILED, t.toString());
+                logPanel.log("Erro ao enviar '" + prepared.task.name + "': " + t);
+            }
+        }
+    }
+
+    private void send(PreparedTransfer prepared) {
+        TransferTask task = prepared.task;
+        IOException connectionError = null;
+        writeLock.lock();
+        try {
+            ObjectOutputStream stream = out;
+            CountingOutputStream streamCounter = counter;
+            if (stream == null) {
+                // Sem conexão: descarta os dados lidos e aguarda a próxima conexão sem gastar uma tentativa
+                if (task.transition(Status.PREPARING, Status.WAITING_CONNECTION)) task.attempts--;
+                return;
+            }
+            if (!task.transition(Status.PREPARING, Status.SENDING)) return;
+
+            task.startNanos = System.nanoTime();
+            // Registrado antes da escrita: a rejeição do servidor pode chegar antes do fim deste método
+            if (!task.isText()) sentFiles.add(task);
+            streamCounter.setTarget(task.sentBytes);
+            try {
+                stream.writeObject(prepared.data);
+                // Descarta as referências guardadas pelo stream para não reter os arquivos já enviados
+                stream.reset();
+                stream.flush();
+            } finally {
+                streamCounter.setTarget(null);
+            }
+            task.finish(Status.SENDING, Status.DONE, null);
+            if (task.isText()) {
+                logPanel.log("Mensagem de texto enviada: " + task.textMessage);
+            } else {
+                logPanel.log("Arquivo '" + task.name + "' (" + task.totalBytes + " bytes) enviado.");
+            }
+        } catch (IOException e) {
+            // O stream ficou inutilizável: os próximos itens aguardam a reconexão em vez de falhar
+            out = null;
+            counter = null;
+            sentFiles.remove(task);
+            connectionError = e;
+            scheduleRetry(task, Status.SENDING, "Erro ao enviar", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        // Uma falha de escrita deixa o stream inutilizável; avisa a GUI uma única vez por conexão
+        if (connectionError != null && onConnectionError != null && errorReported.compareAndSet(false, true)) {
+            onConnectionError.accept(connectionError);
+        }
+    }
+
+    // Reagenda o item com espera crescente; se a conexão ainda estiver fora, ele aguarda a reconexão
+    private void scheduleRetry(TransferTask task, Status from, String action, IOException e) {
+        if (task.attempts >= MAX_ATTEMPTS) {
+            if (task.finish(from, Status.FAILED, e.getMessage())) {
+                logPanel.log(action + " '" + task.name + "' após " + task.attempts + " tentativas: " + e.getMessage());
+            }
+            return;
+        }
+        if (!task.retry(from, Status.RETRY_WAIT, e.getMessage())) return; // cancelada nesse meio tempo
+
+        long delay = BASE_BACKOFF_MILLIS << (task.attempts - 1);
+        logPanel.log(action + " '" + task.name + "' (" + e.getMessage() + "). Nova tentativa em " + delay + " ms.");
+        retryScheduler.schedule(() -> {
+            if (task.transition(Status.RETRY_WAIT, Status.QUEUED)) queue.offer(task);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}